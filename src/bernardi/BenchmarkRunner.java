@@ -0,0 +1,572 @@
+package bernardi;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Headless batch mode that benchmarks every AlgoType across a grid of array sizes
+ * and input distributions, and writes a scaling report (CSV files plus a
+ * self-contained HTML chart) with the fitted complexity exponent of each algorithm.
+ *
+ * This does not touch JavaFX at all. The sorts come from CountingSorts, which are
+ * int[] copies of the ones in SortingVisualization, so it runs fine on a machine
+ * without a display. Run it with:
+ *
+ *     java bernardi.BenchmarkRunner [--min 10] [--max 10000000] [--steps 3]
+ *          [--threads 4] [--budget-ms 2000] [--seed 42] [--out bench-report]
+ *
+ * Each (algorithm, distribution) pair is a "series", and the series are submitted to
+ * a fixed size thread pool so independent series run in parallel. Inside a series the
+ * sizes run from smallest to largest, because the previous result is used to predict
+ * the time of the next one: once a cell is predicted to take longer than --budget-ms,
+ * it and every larger size are marked as skipped. Without this, bubble sort at
+ * n = 10^7 would never finish. If the recursive quicksort runs out of stack, the
+ * cell is marked as overflow and the series stops there too.
+ *
+ * The first prediction of every series comes from the warm up, which times each
+ * series at n = 2000. When --min is larger than that, the series first runs a few
+ * calibration sizes between 2000 and --min (left out of the report), so even the
+ * first reported cell is checked against the budget.
+ *
+ * All inputs are generated from --seed, so running it twice with the same arguments
+ * gives the same arrays, comparisons and moves (only the times change).
+ *
+ * @author Brett Bernardi
+ */
+public class BenchmarkRunner {
+
+    // Stack size for the worker threads. qsort() recurses once per element on
+    // sorted input, so the default thread stack overflows long before the time
+    // budget is hit.
+    private static final long WORKER_STACK_SIZE = 512L * 1024 * 1024;
+
+    // Cells faster than this are repeated, and the fastest repetition is kept.
+    private static final long MIN_TOTAL_NANOS = 50_000_000L;
+    private static final int MAX_REPS = 5;
+
+    // Size used for the warm up, which is also the first point every series
+    // predicts from.
+    private static final int WARMUP_N = 2000;
+    private static final int WARMUP_ROUNDS = 10;
+
+    // Used to measure how much heap each cell allocates. The JVM counts this per
+    // thread, so it stays correct while other series run on other threads. Null if
+    // the JVM does not support it.
+    private static final com.sun.management.ThreadMXBean THREAD_BEAN = threadBean();
+
+    /**
+     * The kinds of input arrays each algorithm is run on.
+     */
+    public enum Distribution {
+        RANDOM, SORTED, REVERSED, NEARLY_SORTED, FEW_UNIQUE;
+
+        /**
+         * Creates an array of n elements of this distribution. The same n and seed
+         * always give the same array.
+         */
+        public int[] generate(int n, long seed) {
+            Random rand = new Random(seed * 31 + ordinal() * 1_000_003L + n);
+            int[] a = new int[n];
+            switch (this) {
+                case RANDOM:
+                    for (int i = 0; i < n; i++) {
+                        a[i] = rand.nextInt(n);
+                    }
+                    break;
+                case SORTED:
+                    for (int i = 0; i < n; i++) {
+                        a[i] = i;
+                    }
+                    break;
+                case REVERSED:
+                    for (int i = 0; i < n; i++) {
+                        a[i] = n - i;
+                    }
+                    break;
+                case NEARLY_SORTED:
+                    // sorted, then about 1% of the elements swapped with a random one
+                    for (int i = 0; i < n; i++) {
+                        a[i] = i;
+                    }
+                    for (int s = 0; s < Math.max(1, n / 100); s++) {
+                        int i = rand.nextInt(n);
+                        int j = rand.nextInt(n);
+                        int temp = a[i];
+                        a[i] = a[j];
+                        a[j] = temp;
+                    }
+                    break;
+                case FEW_UNIQUE:
+                    // only 16 different values
+                    for (int i = 0; i < n; i++) {
+                        a[i] = rand.nextInt(16);
+                    }
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown distribution: " + this);
+            }
+            return a;
+        }
+    }
+
+    /**
+     * Result of a single cell of the matrix, one algorithm on one distribution at one
+     * size.
+     */
+    public static class Cell {
+        public enum Status {
+            OK, SKIPPED, OVERFLOW
+        }
+
+        final SortingVisualization.AlgoType algo;
+        final Distribution distribution;
+        final int n;
+        Status status;
+        int reps;
+        long nanos;         // fastest repetition
+        long comparisons;
+        long moves;
+        int maxDepth;       // deepest qsort() recursion, 0 for the other algorithms
+        long allocBytes;    // heap allocated by the worker thread, -1 if not supported
+        long estStackBytes; // estimated, see estimateStackBytes()
+
+        Cell(SortingVisualization.AlgoType algo, Distribution distribution, int n) {
+            this.algo = algo;
+            this.distribution = distribution;
+            this.n = n;
+            this.status = Status.SKIPPED;
+        }
+    }
+
+    /**
+     * Fitted exponent k of cost ~ n^k for one series.
+     */
+    public static class Fit {
+        final SortingVisualization.AlgoType algo;
+        final Distribution distribution;
+        final double timeExponent;          // NaN if there are not enough points
+        final double comparisonExponent;
+        final double moveExponent;
+        final int points;
+
+        Fit(SortingVisualization.AlgoType algo, Distribution distribution,
+            double timeExponent, double comparisonExponent, double moveExponent,
+            int points) {
+            this.algo = algo;
+            this.distribution = distribution;
+            this.timeExponent = timeExponent;
+            this.comparisonExponent = comparisonExponent;
+            this.moveExponent = moveExponent;
+            this.points = points;
+        }
+
+        /**
+         * Rough name for the exponent, n log n has a slope of about 1.1 over the
+         * usual range of sizes.
+         */
+        String label() {
+            double k = Double.isNaN(comparisonExponent) ? timeExponent : comparisonExponent;
+            if (Double.isNaN(k)) {
+                return "?";
+            }
+            if (k < 1.05) {
+                return "n";
+            }
+            if (k < 1.4) {
+                return "n log n";
+            }
+            if (k > 1.8 && k < 2.2) {
+                return "n^2";
+            }
+            return String.format(Locale.ROOT, "n^%.2f", k);
+        }
+    }
+
+    private int min = 10;
+    private int max = 10_000_000;
+    private int steps = 3; // sizes per decade
+    private int threads = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+    private long budgetNanos = 2_000_000_000L;
+    private long seed = 42;
+    private File outDir = new File("bench-report");
+
+    // Fastest warm up time of every series at n = WARMUP_N, filled in by warmUp()
+    // before any series starts and only read after that.
+    private final Map<SortingVisualization.AlgoType, Map<Distribution, Long>> baselines =
+            new EnumMap<>(SortingVisualization.AlgoType.class);
+
+    public static void main(String[] args) {
+        BenchmarkRunner runner = new BenchmarkRunner();
+        try {
+            runner.parseArgs(args);
+        } catch (IllegalArgumentException ex) {
+            System.err.println(ex.getMessage());
+            System.err.println("Usage: java bernardi.BenchmarkRunner [--min n] [--max n] "
+                    + "[--steps perDecade] [--threads t] [--budget-ms ms] [--seed s] "
+                    + "[--out dir]");
+            System.exit(2);
+        }
+        try {
+            runner.run();
+        } catch (IOException | InterruptedException ex) {
+            System.err.println("Benchmark failed: " + ex);
+            System.exit(1);
+        }
+    }
+
+    private void parseArgs(String[] args) {
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            if (i + 1 >= args.length) {
+                throw new IllegalArgumentException("Missing value for " + arg);
+            }
+            String value = args[++i];
+            try {
+                switch (arg) {
+                    case "--min":
+                        min = Integer.parseInt(value);
+                        break;
+                    case "--max":
+                        max = Integer.parseInt(value);
+                        break;
+                    case "--steps":
+                        steps = Integer.parseInt(value);
+                        break;
+                    case "--threads":
+                        threads = Integer.parseInt(value);
+                        break;
+                    case "--budget-ms":
+                        budgetNanos = Long.parseLong(value) * 1_000_000L;
+                        break;
+                    case "--seed":
+                        seed = Long.parseLong(value);
+                        break;
+                    case "--out":
+                        outDir = new File(value);
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Unknown option " + arg);
+                }
+            } catch (NumberFormatException ex) {
+                throw new IllegalArgumentException("Bad value for " + arg + ": " + value);
+            }
+        }
+        if (min < 2 || max < min || steps < 1 || threads < 1 || budgetNanos <= 0) {
+            throw new IllegalArgumentException("Need 2 <= min <= max, steps >= 1, "
+                    + "threads >= 1 and budget-ms > 0");
+        }
+    }
+
+    /**
+     * Runs the whole matrix and writes the report files into outDir.
+     */
+    public void run() throws IOException, InterruptedException {
+        int[] sizes = logSpacedSizes(min, max, steps);
+        System.out.println("Sizes: " + Arrays.toString(sizes));
+        System.out.println("Threads: " + threads + ", budget per cell: "
+                + budgetNanos / 1_000_000 + " ms");
+
+        warmUp();
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(null, r, "bench-worker", WORKER_STACK_SIZE);
+            t.setDaemon(true);
+            return t;
+        });
+
+        List<Future<List<Cell>>> futures = new ArrayList<>();
+        for (SortingVisualization.AlgoType algo : SortingVisualization.AlgoType.values()) {
+            for (Distribution dist : Distribution.values()) {
+                futures.add(pool.submit(() -> runSeries(algo, dist, sizes)));
+            }
+        }
+        pool.shutdown();
+
+        List<Cell> cells = new ArrayList<>();
+        for (Future<List<Cell>> f : futures) {
+            try {
+                cells.addAll(f.get());
+            } catch (ExecutionException ex) {
+                pool.shutdownNow();
+                throw new IllegalStateException("Benchmark series failed", ex.getCause());
+            }
+        }
+
+        List<Fit> fits = new ArrayList<>();
+        for (SortingVisualization.AlgoType algo : SortingVisualization.AlgoType.values()) {
+            for (Distribution dist : Distribution.values()) {
+                fits.add(fit(algo, dist, cells));
+            }
+        }
+
+        ScalingReport report = new ScalingReport(cells, fits, sizes, seed);
+        report.writeTo(outDir);
+        for (Fit fit : fits) {
+            System.out.println(String.format(Locale.ROOT, "%-10s %-14s ~ %s",
+                    fit.algo, fit.distribution, fit.label()));
+        }
+        System.out.println("Report written to " + outDir.getAbsolutePath());
+    }
+
+    /**
+     * Sizes from min to max (both included), spaced evenly on a log scale with the
+     * given number of sizes per decade. Duplicates from rounding are dropped.
+     */
+    static int[] logSpacedSizes(int min, int max, int perDecade) {
+        TreeSet<Integer> sizes = new TreeSet<>();
+        double lo = Math.log10(min);
+        double hi = Math.log10(max);
+        int count = (int) Math.ceil((hi - lo) * perDecade);
+        for (int i = 0; i <= count; i++) {
+            double exp = Math.min(hi, lo + (double) i / perDecade);
+            sizes.add((int) Math.round(Math.pow(10, exp)));
+        }
+        sizes.add(max);
+        int[] result = new int[sizes.size()];
+        int i = 0;
+        for (int s : sizes) {
+            result[i++] = s;
+        }
+        return result;
+    }
+
+    /**
+     * Runs every series a few times at n = WARMUP_N so the first real cells are not
+     * measuring the JIT compiler, and keeps the fastest time of each series in
+     * baselines as the starting point for its budget predictions.
+     */
+    private void warmUp() {
+        CountingSorts.Stats stats = new CountingSorts.Stats();
+        for (SortingVisualization.AlgoType algo : SortingVisualization.AlgoType.values()) {
+            baselines.put(algo, new EnumMap<Distribution, Long>(Distribution.class));
+        }
+        for (int round = 0; round < WARMUP_ROUNDS; round++) {
+            for (Distribution dist : Distribution.values()) {
+                int[] input = dist.generate(WARMUP_N, seed);
+                for (SortingVisualization.AlgoType algo : SortingVisualization.AlgoType.values()) {
+                    int[] a = input.clone();
+                    long start = System.nanoTime();
+                    CountingSorts.sort(algo, a, stats);
+                    long elapsed = Math.max(1, System.nanoTime() - start);
+                    Long best = baselines.get(algo).get(dist);
+                    if (best == null || elapsed < best) {
+                        baselines.get(algo).put(dist, elapsed);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Runs one algorithm on one distribution for all sizes, smallest first. If the
+     * first size is above WARMUP_N, the sizes between the two are run first as
+     * calibration so the prediction for the first reported cell is not a long jump
+     * from the warm up. Calibration cells are not returned.
+     */
+    private List<Cell> runSeries(SortingVisualization.AlgoType algo, Distribution dist,
+                                 int[] sizes) {
+        int calibrationCount = 0;
+        int[] runSizes = sizes;
+        if (sizes[0] > WARMUP_N) {
+            int[] calibration = logSpacedSizes(WARMUP_N, sizes[0], steps);
+            // drop WARMUP_N itself (already measured) and sizes[0] (reported below)
+            calibrationCount = calibration.length - 2;
+            runSizes = new int[calibrationCount + sizes.length];
+            System.arraycopy(calibration, 1, runSizes, 0, calibrationCount);
+            System.arraycopy(sizes, 0, runSizes, calibrationCount, sizes.length);
+        }
+
+        List<Cell> series = new ArrayList<>();
+        Cell prev = new Cell(algo, dist, WARMUP_N);
+        prev.nanos = baselines.get(algo).get(dist);
+        Cell prevPrev = null;
+        boolean stopped = false;
+        for (int i = 0; i < runSizes.length; i++) {
+            int n = runSizes[i];
+            Cell cell = new Cell(algo, dist, n);
+            if (i >= calibrationCount) {
+                series.add(cell);
+            }
+            if (stopped) {
+                continue;
+            }
+            if (predictNanos(prevPrev, prev, n) > budgetNanos) {
+                stopped = true;
+                continue;
+            }
+            runCell(cell);
+            if (cell.status != Cell.Status.OK) {
+                stopped = true;
+                continue;
+            }
+            prevPrev = prev;
+            prev = cell;
+        }
+        return series;
+    }
+
+    /**
+     * Guesses how long a cell of size n will take from the last two measured cells
+     * in the series (the first one being the warm up). Until there are two,
+     * quadratic growth is assumed.
+     */
+    private static double predictNanos(Cell prevPrev, Cell prev, int n) {
+        double exponent = 2;
+        if (prevPrev != null && prevPrev.nanos > 0 && prev.nanos > prevPrev.nanos) {
+            exponent = Math.log((double) prev.nanos / prevPrev.nanos)
+                    / Math.log((double) prev.n / prevPrev.n);
+            // small cells are noisy, never assume better than linear or worse than cubic
+            exponent = Math.max(1, Math.min(3, exponent));
+        }
+        return prev.nanos * Math.pow((double) n / prev.n, exponent);
+    }
+
+    private void runCell(Cell cell) {
+        int[] input = cell.distribution.generate(cell.n, seed);
+        long best = Long.MAX_VALUE;
+        long total = 0;
+        long allocated = -1;
+        int reps = 0;
+        CountingSorts.Stats stats = null;
+        try {
+            while (reps < MAX_REPS && (reps == 0 || total < MIN_TOTAL_NANOS)) {
+                long allocStart = allocatedBytes();
+                int[] a = input.clone();
+                stats = new CountingSorts.Stats();
+                long start = System.nanoTime();
+                CountingSorts.sort(cell.algo, a, stats);
+                long elapsed = System.nanoTime() - start;
+                if (allocStart >= 0) {
+                    allocated = Math.max(allocated, allocatedBytes() - allocStart);
+                }
+                best = Math.min(best, elapsed);
+                total += elapsed;
+                reps++;
+                if (reps == 1 && !isSorted(a)) {
+                    throw new IllegalStateException(cell.algo + " did not sort "
+                            + cell.distribution + " input of size " + cell.n);
+                }
+            }
+        } catch (StackOverflowError err) {
+            cell.status = Cell.Status.OVERFLOW;
+            return;
+        }
+        cell.status = Cell.Status.OK;
+        cell.reps = reps;
+        cell.nanos = best;
+        cell.comparisons = stats.getComparisons();
+        cell.moves = stats.getMoves();
+        cell.maxDepth = stats.getMaxDepth();
+        cell.allocBytes = allocated;
+        cell.estStackBytes = estimateStackBytes(cell.maxDepth);
+    }
+
+    /**
+     * Rough stack usage of the qsort() recursion. The JVM does not report stack
+     * usage, so this is just the depth times a guessed frame size. The other three
+     * sorts do not recurse and always get 0.
+     */
+    static long estimateStackBytes(int maxDepth) {
+        final long bytesPerFrame = 64;
+        return bytesPerFrame * maxDepth;
+    }
+
+    private static com.sun.management.ThreadMXBean threadBean() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean sunBean = (com.sun.management.ThreadMXBean) bean;
+            if (sunBean.isThreadAllocatedMemorySupported()) {
+                sunBean.setThreadAllocatedMemoryEnabled(true);
+                return sunBean;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Total bytes of heap the current thread has allocated so far, or -1 if the JVM
+     * cannot tell.
+     */
+    private static long allocatedBytes() {
+        if (THREAD_BEAN == null) {
+            return -1;
+        }
+        return THREAD_BEAN.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    private static boolean isSorted(int[] a) {
+        for (int i = 1; i < a.length; i++) {
+            if (a[i - 1] > a[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Least squares fit of log(cost) = k * log(n) + c for one series. Only sizes of
+     * 1000 and above are used when there are at least two of them, since the small
+     * sizes are dominated by constant overhead. Times under 0.1 ms are also left out
+     * of the time fit.
+     */
+    private static Fit fit(SortingVisualization.AlgoType algo, Distribution dist,
+                           List<Cell> cells) {
+        List<Cell> points = new ArrayList<>();
+        for (Cell c : cells) {
+            if (c.algo == algo && c.distribution == dist && c.status == Cell.Status.OK) {
+                points.add(c);
+            }
+        }
+        List<Cell> large = new ArrayList<>();
+        for (Cell c : points) {
+            if (c.n >= 1000) {
+                large.add(c);
+            }
+        }
+        if (large.size() >= 2) {
+            points = large;
+        }
+
+        List<double[]> time = new ArrayList<>();
+        List<double[]> comparisons = new ArrayList<>();
+        List<double[]> moves = new ArrayList<>();
+        for (Cell c : points) {
+            if (c.nanos >= 100_000) {
+                time.add(new double[]{c.n, c.nanos});
+            }
+            comparisons.add(new double[]{c.n, c.comparisons});
+            moves.add(new double[]{c.n, c.moves});
+        }
+        return new Fit(algo, dist, slope(time), slope(comparisons), slope(moves),
+                points.size());
+    }
+
+    /**
+     * Slope of the least squares line through (log x, log y). Points with y = 0
+     * are ignored. Returns NaN with fewer than two usable points.
+     */
+    static double slope(List<double[]> xy) {
+        double sx = 0, sy = 0, sxx = 0, sxy = 0;
+        int count = 0;
+        for (double[] p : xy) {
+            if (p[1] <= 0) {
+                continue;
+            }
+            double x = Math.log(p[0]);
+            double y = Math.log(p[1]);
+            sx += x;
+            sy += y;
+            sxx += x * x;
+            sxy += x * y;
+            count++;
+        }
+        double denom = count * sxx - sx * sx;
+        if (count < 2 || denom == 0) {
+            return Double.NaN;
+        }
+        return (count * sxy - sx * sy) / denom;
+    }
+}
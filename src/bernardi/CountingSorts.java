@@ -0,0 +1,192 @@
+package bernardi;
+
+/**
+ * Headless versions of the four sorting algorithms in SortingVisualization, working
+ * on a plain int[] instead of an ArrayList of Rectangles.
+ *
+ * The logic of each method is kept step for step the same as the visual version
+ * (same loop bounds, same first-element pivot in partition, same swaps), so the
+ * numbers the benchmark produces describe the algorithms the app actually animates.
+ * Instead of adding Moves objects to a queue, every swap increments the "moves"
+ * counter of a Stats object, and every comparison between two array elements
+ * increments its "comparisons" counter.
+ *
+ * All methods are static and keep no global state, so several sorts can run on
+ * different threads at the same time.
+ *
+ * @author Brett Bernardi
+ */
+public class CountingSorts {
+
+    /**
+     * Counters collected during a single sort.
+     */
+    public static class Stats {
+        long comparisons;
+        long moves;
+        int depth;      // current depth of qsort() recursion
+        int maxDepth;   // deepest qsort() recursion reached during the sort
+
+        public long getComparisons() {
+            return comparisons;
+        }
+
+        public long getMoves() {
+            return moves;
+        }
+
+        public int getMaxDepth() {
+            return maxDepth;
+        }
+    }
+
+    private CountingSorts() {
+    }
+
+    /**
+     * Sorts the array in place with the given algorithm, recording the work done
+     * in stats.
+     * @param type AlgoType
+     * @param a array to sort
+     * @param stats counters to add to
+     */
+    public static void sort(SortingVisualization.AlgoType type, int[] a, Stats stats) {
+        switch (type) {
+            case BUBBLE:
+                bubbleSort(a, stats);
+                break;
+            case INSERTION:
+                insertionSort(a, stats);
+                break;
+            case SELECTION:
+                selectionSort(a, stats);
+                break;
+            case QUICKSORT:
+                qsort(a, 0, a.length - 1, stats);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown algorithm: " + type);
+        }
+    }
+
+    /**
+     * BubbleSort method. Like the visual version there is no early exit, it always
+     * makes n - 1 full passes.
+     */
+    private static void bubbleSort(int[] a, Stats stats) {
+        int n = a.length;
+        for (int j = 0; j < n - 1; j++) {
+            for (int i = 0; i <= n - 2; i++) {
+                stats.comparisons++;
+                if (a[i] > a[i + 1]) {
+                    swap(a, i, i + 1, stats);
+                }
+            }
+        }
+    }
+
+    /**
+     * Selection sort method. Swaps a[min] with a[i] on every pass, even when they
+     * are the same element, exactly like the visual version does.
+     */
+    private static void selectionSort(int[] a, Stats stats) {
+        int n = a.length;
+        for (int i = 0; i < n - 1; i++) {
+            int min = i;
+            for (int j = i; j < n; j++) {
+                stats.comparisons++;
+                if (a[j] < a[min]) {
+                    min = j;
+                }
+            }
+            swap(a, min, i, stats);
+        }
+    }
+
+    /**
+     * Insertion sort method
+     */
+    private static void insertionSort(int[] a, Stats stats) {
+        int n = a.length;
+        int j;
+        for (int i = 0; i < n; i++) {
+            j = i;
+            while (j > 0) {
+                stats.comparisons++;
+                if (a[j] >= a[j - 1]) {
+                    break;
+                }
+                swap(a, j, j - 1, stats);
+                j--;
+            }
+        }
+    }
+
+    /**
+     * Same partition as SortingVisualization.partition(): the first element is the
+     * pivot, and elements equal to the pivot go to the left.
+     *
+     * @return int the new index of the pivot after partitioning
+     */
+    private static int partition(int[] a, int lo, int hi, Stats stats) {
+        int pivot = a[lo];
+
+        int i = lo;
+        int j = hi;
+
+        while (true) {
+            while (i < hi) {
+                stats.comparisons++;
+                if (a[i] > pivot) {
+                    break;
+                }
+                i++;
+            }
+            // the visual version compares a[hi] once more when i stops at hi
+            if (i == hi) {
+                stats.comparisons++;
+            }
+            while (j > lo) {
+                stats.comparisons++;
+                if (a[j] <= pivot) {
+                    break;
+                }
+                j--;
+            }
+            if (j == lo) {
+                stats.comparisons++;
+            }
+
+            if (j <= i) {
+                swap(a, lo, j, stats);
+                return j;
+            }
+            swap(a, i, j, stats);
+        }
+    }
+
+    /**
+     * Standard recursive implementation of QuickSort. It is left recursive on
+     * purpose so the benchmark also shows how deep the visual version recurses, e.g.
+     * n levels deep on already sorted input.
+     */
+    private static void qsort(int[] a, int lo, int hi, Stats stats) {
+        if (lo < hi) {
+            stats.depth++;
+            if (stats.depth > stats.maxDepth) {
+                stats.maxDepth = stats.depth;
+            }
+            int k = partition(a, lo, hi, stats);
+            qsort(a, lo, k - 1, stats);
+            qsort(a, k + 1, hi, stats);
+            stats.depth--;
+        }
+    }
+
+    private static void swap(int[] a, int i, int j, Stats stats) {
+        stats.moves++;
+        int temp = a[i];
+        a[i] = a[j];
+        a[j] = temp;
+    }
+}
@@ -0,0 +1,246 @@
+package bernardi;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * Writes the results of a BenchmarkRunner run to a directory:
+ *
+ *     cells.csv      one row per (algorithm, distribution, n) cell. alloc_bytes is
+ *                    the heap the worker thread allocated for one copy and sort of
+ *                    the input (measured), est_stack_bytes is a rough guess at the
+ *                    qsort() stack usage (not measured)
+ *     exponents.csv  the fitted exponent of every (algorithm, distribution) series
+ *     report.html    log-log charts of time and comparisons against n, one pair per
+ *                    distribution, plus the exponent table
+ *
+ * The HTML file draws its charts as inline SVG, so it has no scripts or external
+ * files and can be opened or mailed around on its own.
+ *
+ * @author Brett Bernardi
+ */
+public class ScalingReport {
+
+    // one color per AlgoType, in declaration order
+    private static final String[] COLORS = {"#e6194b", "#3cb44b", "#4363d8", "#f58231",
+            "#911eb4", "#42d4f4"};
+
+    private static final int CHART_WIDTH = 560;
+    private static final int CHART_HEIGHT = 360;
+    private static final int MARGIN = 60;
+
+    private final List<BenchmarkRunner.Cell> cells;
+    private final List<BenchmarkRunner.Fit> fits;
+    private final int[] sizes;
+    private final long seed;
+
+    public ScalingReport(List<BenchmarkRunner.Cell> cells, List<BenchmarkRunner.Fit> fits,
+                         int[] sizes, long seed) {
+        this.cells = cells;
+        this.fits = fits;
+        this.sizes = sizes;
+        this.seed = seed;
+    }
+
+    /**
+     * Writes cells.csv, exponents.csv and report.html into dir, creating it if needed.
+     */
+    public void writeTo(File dir) throws IOException {
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            throw new IOException("Could not create directory " + dir);
+        }
+        writeCellsCsv(new File(dir, "cells.csv"));
+        writeExponentsCsv(new File(dir, "exponents.csv"));
+        writeHtml(new File(dir, "report.html"));
+    }
+
+    private void writeCellsCsv(File file) throws IOException {
+        try (PrintWriter out = new PrintWriter(file, StandardCharsets.UTF_8.name())) {
+            out.println("algorithm,distribution,n,status,reps,time_ns,comparisons,moves,"
+                    + "max_depth,alloc_bytes,est_stack_bytes");
+            for (BenchmarkRunner.Cell c : cells) {
+                if (c.status == BenchmarkRunner.Cell.Status.OK) {
+                    out.println(c.algo + "," + c.distribution + "," + c.n + ","
+                            + c.status + "," + c.reps + "," + c.nanos + ","
+                            + c.comparisons + "," + c.moves + "," + c.maxDepth + ","
+                            + (c.allocBytes >= 0 ? String.valueOf(c.allocBytes) : "")
+                            + "," + c.estStackBytes);
+                } else {
+                    out.println(c.algo + "," + c.distribution + "," + c.n + ","
+                            + c.status + ",,,,,,,");
+                }
+            }
+        }
+    }
+
+    private void writeExponentsCsv(File file) throws IOException {
+        try (PrintWriter out = new PrintWriter(file, StandardCharsets.UTF_8.name())) {
+            out.println("algorithm,distribution,points,time_exponent,"
+                    + "comparison_exponent,move_exponent,label");
+            for (BenchmarkRunner.Fit f : fits) {
+                out.println(f.algo + "," + f.distribution + "," + f.points + ","
+                        + format(f.timeExponent) + "," + format(f.comparisonExponent)
+                        + "," + format(f.moveExponent) + "," + f.label());
+            }
+        }
+    }
+
+    private void writeHtml(File file) throws IOException {
+        try (PrintWriter out = new PrintWriter(file, StandardCharsets.UTF_8.name())) {
+            out.println("<!DOCTYPE html>");
+            out.println("<html><head><meta charset=\"utf-8\">");
+            out.println("<title>Sorting algorithm scaling report</title>");
+            out.println("<style>");
+            out.println("body { font-family: sans-serif; margin: 2em; }");
+            out.println("table { border-collapse: collapse; margin-bottom: 2em; }");
+            out.println("td, th { border: 1px solid #ccc; padding: 4px 10px; "
+                    + "text-align: right; }");
+            out.println("th { background: #21c6ef; }");
+            out.println(".charts { display: flex; flex-wrap: wrap; gap: 1em; }");
+            out.println("</style></head><body>");
+            out.println("<h1>Sorting algorithm scaling report</h1>");
+            out.println("<p>Sizes: " + sizes[0] + " to " + sizes[sizes.length - 1]
+                    + " (" + sizes.length + " sizes), seed " + seed
+                    + ". Exponent k means cost grows like n<sup>k</sup>, fitted on "
+                    + "a log-log scale.</p>");
+
+            out.println("<h2>Fitted exponents</h2>");
+            out.println("<table><tr><th>Algorithm</th><th>Distribution</th>"
+                    + "<th>Points</th><th>Time</th><th>Comparisons</th><th>Moves</th>"
+                    + "<th>Looks like</th></tr>");
+            for (BenchmarkRunner.Fit f : fits) {
+                out.println("<tr><td>" + f.algo + "</td><td>" + f.distribution
+                        + "</td><td>" + f.points + "</td><td>" + format(f.timeExponent)
+                        + "</td><td>" + format(f.comparisonExponent) + "</td><td>"
+                        + format(f.moveExponent) + "</td><td>" + f.label()
+                        + "</td></tr>");
+            }
+            out.println("</table>");
+
+            for (BenchmarkRunner.Distribution dist : BenchmarkRunner.Distribution.values()) {
+                out.println("<h2>" + dist + "</h2>");
+                out.println("<div class=\"charts\">");
+                out.println(chart(dist, "Time (ns)", true));
+                out.println(chart(dist, "Comparisons", false));
+                out.println("</div>");
+            }
+            out.println("</body></html>");
+        }
+    }
+
+    /**
+     * Draws one log-log SVG chart with a line per algorithm.
+     * @param dist the distribution to plot
+     * @param title y axis title
+     * @param time plot time if true, comparisons otherwise
+     */
+    private String chart(BenchmarkRunner.Distribution dist, String title, boolean time) {
+        SortingVisualization.AlgoType[] algos = SortingVisualization.AlgoType.values();
+
+        // find the y range over every plotted point
+        double yMin = Double.MAX_VALUE;
+        double yMax = 0;
+        for (BenchmarkRunner.Cell c : cells) {
+            double y = value(c, time);
+            if (c.distribution == dist && y > 0) {
+                yMin = Math.min(yMin, y);
+                yMax = Math.max(yMax, y);
+            }
+        }
+        if (yMax == 0) {
+            yMin = 1;
+            yMax = 10;
+        }
+        double lxMin = Math.floor(Math.log10(sizes[0]));
+        double lxMax = Math.ceil(Math.log10(sizes[sizes.length - 1]));
+        double lyMin = Math.floor(Math.log10(yMin));
+        double lyMax = Math.ceil(Math.log10(yMax));
+        if (lxMax == lxMin) {
+            lxMax++;
+        }
+        if (lyMax == lyMin) {
+            lyMax++;
+        }
+        double plotW = CHART_WIDTH - 2 * MARGIN;
+        double plotH = CHART_HEIGHT - 2 * MARGIN;
+
+        StringBuilder svg = new StringBuilder();
+        svg.append("<svg xmlns=\"http://www.w3.org/2000/svg\" width=\"").append(CHART_WIDTH)
+                .append("\" height=\"").append(CHART_HEIGHT)
+                .append("\" font-size=\"11\">\n");
+        svg.append("<rect width=\"100%\" height=\"100%\" fill=\"white\" stroke=\"#ccc\"/>\n");
+        svg.append(text(CHART_WIDTH / 2.0, 20, "middle", title + " vs n, " + dist));
+
+        // grid lines and labels at every power of ten
+        for (double e = lxMin; e <= lxMax; e++) {
+            double x = MARGIN + (e - lxMin) / (lxMax - lxMin) * plotW;
+            svg.append(line(x, MARGIN, x, MARGIN + plotH, "#eee"));
+            svg.append(text(x, MARGIN + plotH + 15, "middle", "1e" + (int) e));
+        }
+        for (double e = lyMin; e <= lyMax; e++) {
+            double y = MARGIN + plotH - (e - lyMin) / (lyMax - lyMin) * plotH;
+            svg.append(line(MARGIN, y, MARGIN + plotW, y, "#eee"));
+            svg.append(text(MARGIN - 5, y + 4, "end", "1e" + (int) e));
+        }
+        svg.append(line(MARGIN, MARGIN + plotH, MARGIN + plotW, MARGIN + plotH, "black"));
+        svg.append(line(MARGIN, MARGIN, MARGIN, MARGIN + plotH, "black"));
+        svg.append(text(CHART_WIDTH / 2.0, CHART_HEIGHT - 15, "middle", "n"));
+
+        for (int a = 0; a < algos.length; a++) {
+            String color = COLORS[a % COLORS.length];
+            StringBuilder points = new StringBuilder();
+            for (BenchmarkRunner.Cell c : cells) {
+                double v = value(c, time);
+                if (c.algo != algos[a] || c.distribution != dist || v <= 0) {
+                    continue;
+                }
+                double x = MARGIN + (Math.log10(c.n) - lxMin) / (lxMax - lxMin) * plotW;
+                double y = MARGIN + plotH
+                        - (Math.log10(v) - lyMin) / (lyMax - lyMin) * plotH;
+                points.append(format(x)).append(',').append(format(y)).append(' ');
+                svg.append("<circle cx=\"").append(format(x)).append("\" cy=\"")
+                        .append(format(y)).append("\" r=\"3\" fill=\"").append(color)
+                        .append("\"><title>").append(algos[a]).append(" n=").append(c.n)
+                        .append(": ").append((long) v).append("</title></circle>\n");
+            }
+            svg.append("<polyline fill=\"none\" stroke=\"").append(color)
+                    .append("\" stroke-width=\"2\" points=\"").append(points.toString().trim())
+                    .append("\"/>\n");
+
+            // legend in the top left corner of the plot
+            double ly = MARGIN + 12 + a * 15;
+            svg.append(line(MARGIN + 10, ly - 4, MARGIN + 30, ly - 4, color));
+            svg.append(text(MARGIN + 35, ly, "start", algos[a].toString()));
+        }
+        svg.append("</svg>");
+        return svg.toString();
+    }
+
+    private static double value(BenchmarkRunner.Cell c, boolean time) {
+        if (c.status != BenchmarkRunner.Cell.Status.OK) {
+            return 0;
+        }
+        return time ? c.nanos : c.comparisons;
+    }
+
+    private static String line(double x1, double y1, double x2, double y2, String color) {
+        return "<line x1=\"" + format(x1) + "\" y1=\"" + format(y1) + "\" x2=\""
+                + format(x2) + "\" y2=\"" + format(y2) + "\" stroke=\"" + color
+                + "\"/>\n";
+    }
+
+    private static String text(double x, double y, String anchor, String s) {
+        return "<text x=\"" + format(x) + "\" y=\"" + format(y) + "\" text-anchor=\""
+                + anchor + "\">" + s + "</text>\n";
+    }
+
+    private static String format(double d) {
+        if (Double.isNaN(d)) {
+            return "";
+        }
+        return String.format(Locale.ROOT, "%.2f", d);
+    }
+}